@@ -0,0 +1,70 @@
+package helloakka;
+
+import akka.javasdk.DependencyProvider;
+import akka.javasdk.ServiceSetup;
+import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timer.TimerScheduler;
+import com.typesafe.config.Config;
+import helloakka.api.CartExpiryAction;
+import helloakka.api.admission.AdmissionControl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service wide setup. Provides the shared instances that endpoints need beyond the component client
+ * and kicks off the recurring background jobs.
+ */
+@Setup
+public class HelloAkkaSetup implements ServiceSetup {
+
+    private static final Logger logger = LoggerFactory.getLogger(HelloAkkaSetup.class);
+
+    private final Config config;
+    private final ComponentClient componentClient;
+    private final TimerScheduler timerScheduler;
+    private final AdmissionControl admissionControl;
+
+    public HelloAkkaSetup(Config config, ComponentClient componentClient, TimerScheduler timerScheduler) {
+        this.config = config;
+        this.componentClient = componentClient;
+        this.timerScheduler = timerScheduler;
+        this.admissionControl = AdmissionControl.fromConfig(config);
+    }
+
+    @Override
+    public void onStartup() {
+        Config expiry = config.getConfig("helloakka.cart-expiry");
+        if (!expiry.getBoolean("enabled")) {
+            logger.info("Cart expiry is disabled");
+            // the action keeps rescheduling itself, so a timer from an earlier run has to be removed explicitly
+            timerScheduler.delete(CartExpiryAction.TIMER_NAME);
+            return;
+        }
+        var command = CartExpiryAction.ExpireAbandonedCarts.startSweep(
+            expiry.getDuration("inactivity-ttl"),
+            expiry.getInt("batch-size"),
+            expiry.getDuration("batch-interval"),
+            expiry.getDuration("check-interval"));
+        // replaces any timer left over from a previous run, so settings changes take effect on restart
+        timerScheduler.startSingleTimer(
+            CartExpiryAction.TIMER_NAME,
+            expiry.getDuration("initial-delay"),
+            componentClient.forTimedAction()
+                .method(CartExpiryAction::expireAbandonedCarts)
+                .deferred(command));
+    }
+
+    @Override
+    public DependencyProvider createDependencyProvider() {
+        return new DependencyProvider() {
+            @Override
+            public <T> T getDependency(Class<T> clazz) {
+                if (clazz == AdmissionControl.class) {
+                    return clazz.cast(admissionControl);
+                }
+                throw new IllegalArgumentException("Unknown dependency type: " + clazz);
+            }
+        };
+    }
+}
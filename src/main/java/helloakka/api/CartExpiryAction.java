@@ -0,0 +1,108 @@
+package helloakka.api;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Periodically deletes shopping carts that have not been touched within the inactivity TTL.
+ *
+ * Carts are reclaimed one at a time in batches of {@code batchSize}, oldest first. Each batch continues
+ * after the last cart of the previous one, so carts that were refused or failed are not fetched again in
+ * the same sweep. A full batch means there is more work left, so the next batch is scheduled after
+ * {@code batchInterval}; otherwise the sweep is done and the next one starts from the beginning after
+ * {@code checkInterval}. Configured under {@code helloakka.cart-expiry}.
+ */
+@ComponentId("cart-expiry")
+public class CartExpiryAction extends TimedAction {
+
+    public static final String TIMER_NAME = "cart-expiry";
+
+    public record ExpireAbandonedCarts(Duration inactivityTtl, int batchSize, Duration batchInterval,
+                                       Duration checkInterval, long reclaimedInSweep,
+                                       Instant after, String afterCartId) {
+
+        public static ExpireAbandonedCarts startSweep(Duration inactivityTtl, int batchSize, Duration batchInterval,
+                                                      Duration checkInterval) {
+            return new ExpireAbandonedCarts(inactivityTtl, batchSize, batchInterval, checkInterval, 0, Instant.EPOCH, "");
+        }
+
+        ExpireAbandonedCarts continueAfter(CartsByActivityView.CartActivity last, long reclaimed) {
+            return new ExpireAbandonedCarts(inactivityTtl, batchSize, batchInterval, checkInterval, reclaimed,
+                last.lastActivity(), last.cartId());
+        }
+
+        ExpireAbandonedCarts nextSweep() {
+            return startSweep(inactivityTtl, batchSize, batchInterval, checkInterval);
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(CartExpiryAction.class);
+
+    private final ComponentClient componentClient;
+
+    public CartExpiryAction(ComponentClient componentClient) {
+        this.componentClient = componentClient;
+    }
+
+    public Effect expireAbandonedCarts(ExpireAbandonedCarts command) {
+        var cutoff = Instant.now().minus(command.inactivityTtl());
+        CompletionStage<Done> sweep = componentClient.forView()
+            .method(CartsByActivityView::getInactiveCarts)
+            .invokeAsync(new CartsByActivityView.InactiveCartsQuery(
+                cutoff, command.after(), command.afterCartId(), command.batchSize()))
+            .thenCompose(result -> expireAll(result.carts(), cutoff)
+                .thenCompose(reclaimed -> scheduleNext(command, result.carts(), reclaimed)));
+        return effects().asyncDone(sweep);
+    }
+
+    private CompletionStage<Integer> expireAll(List<CartsByActivityView.CartActivity> carts, Instant cutoff) {
+        CompletionStage<Integer> reclaimed = CompletableFuture.completedFuture(0);
+        for (var cart : carts) {
+            reclaimed = reclaimed.thenCompose(count ->
+                componentClient.forEventSourcedEntity(cart.cartId())
+                    .method(ShoppingCartEntity::expire)
+                    .invokeAsync(cutoff)
+                    .handle((expired, error) -> {
+                        if (error != null) {
+                            logger.warn("Failed to expire cart id={}", cart.cartId(), error);
+                            return count;
+                        }
+                        return expired ? count + 1 : count;
+                    }));
+        }
+        return reclaimed;
+    }
+
+    private CompletionStage<Done> scheduleNext(ExpireAbandonedCarts command,
+                                               List<CartsByActivityView.CartActivity> batch, int reclaimed) {
+        long reclaimedInSweep = command.reclaimedInSweep() + reclaimed;
+        boolean moreLeft = batch.size() >= command.batchSize();
+        Duration delay;
+        ExpireAbandonedCarts next;
+        if (moreLeft) {
+            logger.info("Reclaimed {} abandoned carts in batch, {} so far in this sweep", reclaimed, reclaimedInSweep);
+            delay = command.batchInterval();
+            next = command.continueAfter(batch.get(batch.size() - 1), reclaimedInSweep);
+        } else {
+            logger.info("Cart expiry sweep finished, reclaimed {} abandoned carts", reclaimedInSweep);
+            delay = command.checkInterval();
+            next = command.nextSweep();
+        }
+        return timers().startSingleTimer(
+            TIMER_NAME,
+            delay,
+            componentClient.forTimedAction()
+                .method(CartExpiryAction::expireAbandonedCarts)
+                .deferred(next));
+    }
+}
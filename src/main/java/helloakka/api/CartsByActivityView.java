@@ -0,0 +1,62 @@
+package helloakka.api;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.annotations.Table;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tracks when each shopping cart was last touched, so abandoned carts can be found without replaying them.
+ * Rows are removed once a cart expires, keeping the view proportional to live carts.
+ */
+@ComponentId("carts-by-activity")
+public class CartsByActivityView extends View {
+
+    public record CartActivity(String cartId, Instant lastActivity) {}
+
+    public record CartActivities(List<CartActivity> carts) {}
+
+    // (after, afterCartId) is the last row of the previous batch, rows are returned strictly past it
+    public record InactiveCartsQuery(Instant cutoff, Instant after, String afterCartId, int limit) {}
+
+    @Table("carts_by_activity")
+    @Consume.FromEventSourcedEntity(ShoppingCartEntity.class)
+    public static class CartActivityUpdater extends TableUpdater<CartActivity> {
+
+        public Effect<CartActivity> onEvent(ShoppingCartEvent event) {
+            return switch (event) {
+                case ShoppingCartEvent.CartExpired expired -> effects().deleteRow();
+                case ShoppingCartEvent.ItemAdded added when added.timestamp() != null ->
+                    effects().updateRow(new CartActivity(cartId(), added.timestamp()));
+                default -> effects().updateRow(new CartActivity(cartId(), eventTime()));
+            };
+        }
+
+        private String cartId() {
+            return updateContext().eventSubject().orElse("");
+        }
+
+        // time the event was persisted, so replaying the view does not make old carts look active
+        private Instant eventTime() {
+            return updateContext().metadata().asCloudEvent().time()
+                .map(time -> time.toInstant())
+                .orElseGet(Instant::now);
+        }
+    }
+
+    @Query("""
+        SELECT * AS carts FROM carts_by_activity
+        WHERE lastActivity < :cutoff
+          AND (lastActivity > :after OR (lastActivity = :after AND cartId > :afterCartId))
+        ORDER BY lastActivity, cartId
+        LIMIT :limit
+        """)
+    public QueryEffect<CartActivities> getInactiveCarts(InactiveCartsQuery query) {
+        return queryResult();
+    }
+}
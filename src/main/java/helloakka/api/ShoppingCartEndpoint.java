@@ -11,6 +11,7 @@ import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.Put;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.HttpResponses;
+import helloakka.api.admission.AdmissionControl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,11 +29,13 @@ import java.util.concurrent.CompletionStage;
 public class ShoppingCartEndpoint {
 
     private final ComponentClient componentClient;
+    private final AdmissionControl admissionControl;
 
     private static final Logger logger = LoggerFactory.getLogger(ShoppingCartEndpoint.class);
 
-    public ShoppingCartEndpoint(ComponentClient componentClient) { // <2>
+    public ShoppingCartEndpoint(ComponentClient componentClient, AdmissionControl admissionControl) { // <2>
         this.componentClient = componentClient;
+        this.admissionControl = admissionControl;
     }
 
     // end::class[]
@@ -52,10 +55,11 @@ public class ShoppingCartEndpoint {
     @Put("/{cartId}/item") // <6>
     public CompletionStage<HttpResponse> addItem(String cartId, ShoppingCart.LineItem item) {
         logger.info("Adding item to cart id={} item={}", cartId, item);
-        return componentClient.forEventSourcedEntity(cartId)
-                .method(ShoppingCartEntity::addItem)
-                .invokeAsync(item)
-                .thenApply(__ -> HttpResponses.ok()); // <7>
+        return admissionControl.admit("cart-add-item", cartId, () ->
+                componentClient.forEventSourcedEntity(cartId)
+                        .method(ShoppingCartEntity::addItem)
+                        .invokeAsync(item)
+                        .thenApply(__ -> HttpResponses.ok())); // <7>
     }
     // end::endpoint-component-interaction[]
 
@@ -7,10 +7,11 @@ import akka.javasdk.eventsourcedentity.EventSourcedEntityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.util.Collections;
 
 @ComponentId("shopping-cart")
-public class ShoppingCartEntity extends EventSourcedEntity<ShoppingCart, ShoppingCartEvent> {
+public class ShoppingCartEntity extends EventSourcedEntity<ShoppingCartState, ShoppingCartEvent> {
 
     private final String entityId;
 
@@ -21,30 +22,55 @@ public class ShoppingCartEntity extends EventSourcedEntity<ShoppingCart, Shoppin
     }
 
     @Override
-    public ShoppingCart emptyState() {
-        return new ShoppingCart(entityId, Collections.emptyList(), false);
+    public ShoppingCartState emptyState() {
+        return new ShoppingCartState(new ShoppingCart(entityId, Collections.emptyList(), false), null);
     }
 
     public Effect<Done> addItem(ShoppingCart.LineItem lineItem) {
-        if (currentState().checkedOut()) {
+        if (isDeleted()) {
+            // a deleted entity rejects new events until its retention period is over
+            logger.info("Shopping cart id={} has expired", entityId);
+            return effects().error("Shopping cart has expired, start a new cart");
+        } else if (currentState().cart().checkedOut()) {
             logger.info("Shopping cart has already been checked-out");
             return effects().error("Shopping cart has already been checked-out");
         } else {
-            return effects().persist(new ShoppingCartEvent.ItemAdded(lineItem)).thenReply(cart -> Done.done());
+            return effects().persist(new ShoppingCartEvent.ItemAdded(lineItem, Instant.now())).thenReply(cart -> Done.done());
         }
     }
 
+    // Called by CartExpiryAction for carts the view reports as untouched since the cutoff. The view may lag,
+    // so the cart's own last activity decides; replies whether the cart was actually expired.
+    public Effect<Boolean> expire(Instant cutoff) {
+        if (isDeleted()) {
+            return effects().reply(false);
+        }
+        if (currentState().activeSince(cutoff)) {
+            logger.info("Not expiring shopping cart id={}, it was active at {}", entityId, currentState().lastActivity());
+            return effects().reply(false);
+        }
+        logger.info("Expiring abandoned shopping cart id={}", entityId);
+        return effects()
+            .persist(new ShoppingCartEvent.CartExpired())
+            .deleteEntity()
+            .thenReply(cart -> true);
+    }
+
     // Can be executed on any node, might not be consistent
     public ReadOnlyEffect<ShoppingCart> getCart() {
-        return effects().reply(currentState());
+        if (isDeleted()) {
+            return effects().reply(emptyState().cart());
+        }
+        return effects().reply(currentState().cart());
     }
 
     @Override
-    public ShoppingCart applyEvent(ShoppingCartEvent shoppingCartEvent) {
+    public ShoppingCartState applyEvent(ShoppingCartEvent shoppingCartEvent) {
         return switch (shoppingCartEvent) {
             case ShoppingCartEvent.ItemAdded a -> currentState().onItemAdded(a);
             case ShoppingCartEvent.CheckedOut checkedOut -> currentState();
             case ShoppingCartEvent.ItemRemoved itemRemoved -> currentState();
+            case ShoppingCartEvent.CartExpired expired -> emptyState();
         };
     }
 }
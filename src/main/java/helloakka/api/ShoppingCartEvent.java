@@ -2,13 +2,18 @@ package helloakka.api;
 
 import akka.javasdk.annotations.TypeName;
 
+import java.time.Instant;
+
 public sealed interface ShoppingCartEvent {
     @TypeName("item-added")
-    record ItemAdded(ShoppingCart.LineItem item) implements ShoppingCartEvent {}
+    record ItemAdded(ShoppingCart.LineItem item, Instant timestamp) implements ShoppingCartEvent {}
 
     @TypeName("item-removed")
     record ItemRemoved(ShoppingCart.LineItem item) implements ShoppingCartEvent {}
 
     @TypeName("checked-out")
     record CheckedOut() implements ShoppingCartEvent {}
+
+    @TypeName("cart-expired")
+    record CartExpired() implements ShoppingCartEvent {}
 }
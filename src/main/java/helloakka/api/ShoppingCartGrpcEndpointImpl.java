@@ -0,0 +1,103 @@
+package helloakka.api;
+
+import akka.NotUsed;
+import akka.grpc.GrpcServiceException;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.GrpcEndpoint;
+import akka.javasdk.client.ComponentClient;
+import akka.stream.javadsl.Source;
+import helloakka.api.admission.AdmissionControl;
+import helloakka.api.grpc.AddItemRequest;
+import helloakka.api.grpc.AddItemResponse;
+import helloakka.api.grpc.Cart;
+import helloakka.api.grpc.GetCartRequest;
+import helloakka.api.grpc.LineItem;
+import helloakka.api.grpc.ShoppingCartGrpcEndpoint;
+import helloakka.api.grpc.WatchCartRequest;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * gRPC counterpart of {@link ShoppingCartEndpoint} for internal callers, sharing its admission limits.
+ *
+ * Example usage:
+ * ```bash
+ * grpcurl -plaintext -d '{"cart_id": "cart1"}' localhost:9000 helloakka.api.ShoppingCartGrpcEndpoint/WatchCart
+ * ```
+ */
+@Acl(allow = @Acl.Matcher(service = "*"))
+@GrpcEndpoint
+public class ShoppingCartGrpcEndpointImpl implements ShoppingCartGrpcEndpoint {
+
+    private final ComponentClient componentClient;
+    private final AdmissionControl admissionControl;
+
+    private static final Logger logger = LoggerFactory.getLogger(ShoppingCartGrpcEndpointImpl.class);
+
+    public ShoppingCartGrpcEndpointImpl(ComponentClient componentClient, AdmissionControl admissionControl) {
+        this.componentClient = componentClient;
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public CompletionStage<Cart> getCart(GetCartRequest in) {
+        logger.info("Get cart id={}", in.getCartId());
+        return fetchCart(in.getCartId());
+    }
+
+    @Override
+    public CompletionStage<AddItemResponse> addItem(AddItemRequest in) {
+        logger.info("Adding item to cart id={} item={}", in.getCartId(), in.getItem());
+        if (!in.hasItem()) {
+            return CompletableFuture.failedFuture(new GrpcServiceException(
+                    Status.INVALID_ARGUMENT.withDescription("Item must be specified")));
+        }
+        var item = new ShoppingCart.LineItem(in.getItem().getProductId(), in.getItem().getName(), in.getItem().getQuantity());
+        return admissionControl.admit("cart-add-item", in.getCartId(), () ->
+                componentClient.forEventSourcedEntity(in.getCartId())
+                        .method(ShoppingCartEntity::addItem)
+                        .invokeAsync(item)
+                        .thenApply(__ -> AddItemResponse.getDefaultInstance()),
+                wait -> CompletableFuture.failedFuture(new GrpcServiceException(
+                        Status.RESOURCE_EXHAUSTED.withDescription(
+                                "Too many requests, retry after " + AdmissionControl.retryAfterSeconds(wait) + "s"))));
+    }
+
+    @Override
+    public Source<Cart, NotUsed> watchCart(WatchCartRequest in) {
+        logger.info("Watch cart id={}", in.getCartId());
+        // pushed from the view as changes are projected, so watchers put no load on the entity. An expired
+        // cart's row is deleted, so after expiry the stream stays open but emits nothing more.
+        return componentClient.forView()
+                .stream(ShoppingCartsView::watchCart)
+                .source(in.getCartId())
+                .map(ShoppingCartGrpcEndpointImpl::toApi);
+    }
+
+    private CompletionStage<Cart> fetchCart(String cartId) {
+        return componentClient.forEventSourcedEntity(cartId)
+                .method(ShoppingCartEntity::getCart)
+                .invokeAsync()
+                .thenApply(ShoppingCartGrpcEndpointImpl::toApi);
+    }
+
+    // protobuf has no null strings, while the JSON endpoint accepts line items with missing fields
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static Cart toApi(ShoppingCart cart) {
+        var builder = Cart.newBuilder()
+                .setCartId(nullToEmpty(cart.cartId()))
+                .setCheckedOut(cart.checkedOut());
+        cart.items().forEach(item -> builder.addItems(LineItem.newBuilder()
+                .setProductId(nullToEmpty(item.productId()))
+                .setName(nullToEmpty(item.name()))
+                .setQuantity(item.quantity())));
+        return builder.build();
+    }
+}
@@ -0,0 +1,19 @@
+package helloakka.api;
+
+import java.time.Instant;
+
+/**
+ * State of {@link ShoppingCartEntity}: the cart as returned to callers, plus bookkeeping that stays internal.
+ * lastActivity is null for carts whose events predate it being recorded.
+ */
+public record ShoppingCartState(ShoppingCart cart, Instant lastActivity) {
+
+    public ShoppingCartState onItemAdded(ShoppingCartEvent.ItemAdded itemAdded) {
+        var activity = itemAdded.timestamp() != null ? itemAdded.timestamp() : lastActivity;
+        return new ShoppingCartState(cart.onItemAdded(itemAdded), activity);
+    }
+
+    public boolean activeSince(Instant cutoff) {
+        return lastActivity != null && lastActivity.isAfter(cutoff);
+    }
+}
@@ -0,0 +1,44 @@
+package helloakka.api;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.annotations.Table;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+
+import java.util.Collections;
+
+/**
+ * Projection of the shopping carts, used to push cart changes to watchers without reading the entity.
+ */
+@ComponentId("shopping-carts")
+public class ShoppingCartsView extends View {
+
+    @Table("shopping_carts")
+    @Consume.FromEventSourcedEntity(ShoppingCartEntity.class)
+    public static class ShoppingCartUpdater extends TableUpdater<ShoppingCart> {
+
+        public Effect<ShoppingCart> onEvent(ShoppingCartEvent event) {
+            return switch (event) {
+                case ShoppingCartEvent.ItemAdded added -> effects().updateRow(currentCart().onItemAdded(added));
+                case ShoppingCartEvent.CartExpired expired -> effects().deleteRow();
+                case ShoppingCartEvent.CheckedOut checkedOut -> effects().ignore();
+                case ShoppingCartEvent.ItemRemoved itemRemoved -> effects().ignore();
+            };
+        }
+
+        private ShoppingCart currentCart() {
+            if (rowState() != null) {
+                return rowState();
+            }
+            return new ShoppingCart(updateContext().eventSubject().orElse(""), Collections.emptyList(), false);
+        }
+    }
+
+    // emits the current cart and then the cart after every change to it
+    @Query(value = "SELECT * FROM shopping_carts WHERE cartId = :cartId", streamUpdates = true)
+    public QueryStreamEffect<ShoppingCart> watchCart(String cartId) {
+        return queryStreamResult();
+    }
+}
@@ -0,0 +1,115 @@
+package helloakka.api.admission;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
+import akka.http.javadsl.model.headers.RetryAfter;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Fails fast with 429 Too Many Requests (RESOURCE_EXHAUSTED over gRPC) when a route is saturated,
+ * instead of letting commands queue up in front of hot entities.
+ *
+ * Every route configured under {@code helloakka.admission.routes} gets a global concurrency limit and a
+ * token bucket per key. HTTP and gRPC endpoints for the same operation use the same route, so traffic
+ * for a cart or machine shares one budget whichever protocol it arrives on. Endpoints are instantiated
+ * per request, so a single instance is shared through the service setup.
+ */
+public class AdmissionControl {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private record RouteLimits(ConcurrencyLimiter concurrency, KeyedRateLimiter perKey) {}
+
+    private final boolean enabled;
+    private final Map<String, RouteLimits> routes;
+
+    private AdmissionControl(boolean enabled, Map<String, RouteLimits> routes) {
+        this.enabled = enabled;
+        this.routes = routes;
+    }
+
+    public static AdmissionControl fromConfig(Config config) {
+        Config admission = config.getConfig("helloakka.admission");
+        int maxTrackedKeys = admission.getInt("max-tracked-keys");
+        Config routesConfig = admission.getConfig("routes");
+        Map<String, RouteLimits> routes = new HashMap<>();
+        for (String route : routesConfig.root().keySet()) {
+            Config routeConfig = routesConfig.getConfig(route);
+            int maxConcurrent = routeConfig.getInt("max-concurrent");
+            double perKeyRate = routeConfig.getDouble("per-key-rate");
+            double perKeyBurst = routeConfig.getDouble("per-key-burst");
+            if (maxConcurrent <= 0 || perKeyRate <= 0 || perKeyBurst < 1) {
+                throw new IllegalArgumentException("Invalid admission limits for route " + route
+                    + ": max-concurrent and per-key-rate must be positive and per-key-burst at least 1");
+            }
+            routes.put(route, new RouteLimits(
+                new ConcurrencyLimiter(maxConcurrent),
+                new KeyedRateLimiter(perKeyRate, perKeyBurst, maxTrackedKeys)));
+        }
+        return new AdmissionControl(admission.getBoolean("enabled"), Map.copyOf(routes));
+    }
+
+    /**
+     * Runs {@code call} if both the route and the key still have capacity, otherwise replies 429 with a
+     * Retry-After header without touching the component.
+     */
+    public CompletionStage<HttpResponse> admit(String route, String key, Supplier<CompletionStage<HttpResponse>> call) {
+        return admit(route, key, call, wait -> CompletableFuture.completedFuture(tooManyRequests(wait)));
+    }
+
+    /**
+     * Protocol agnostic variant, {@code rejected} is given the suggested retry delay and produces the
+     * rejection in whatever form the caller speaks.
+     */
+    public <T> CompletionStage<T> admit(String route, String key, Supplier<CompletionStage<T>> call,
+                                        Function<Duration, CompletionStage<T>> rejected) {
+        RouteLimits limits = routes.get(route);
+        if (!enabled || limits == null) {
+            return call.get();
+        }
+
+        // concurrency first, so a request turned away by a saturated route does not also spend its key's token
+        if (!limits.concurrency().tryAcquire()) {
+            logger.debug("Route saturated route={} inFlight={}", route, limits.concurrency().inFlight());
+            return rejected.apply(Duration.ofSeconds(1));
+        }
+
+        Duration wait = limits.perKey().tryAcquire(key);
+        if (!wait.isZero()) {
+            limits.concurrency().release();
+            logger.debug("Rate limited route={} key={} retryAfter={}", route, key, wait);
+            return rejected.apply(wait);
+        }
+
+        CompletionStage<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            limits.concurrency().release();
+            throw e;
+        }
+        return result.whenComplete((response, error) -> limits.concurrency().release());
+    }
+
+    public static long retryAfterSeconds(Duration wait) {
+        return Math.max(1, (wait.toMillis() + 999) / 1000);
+    }
+
+    private static HttpResponse tooManyRequests(Duration wait) {
+        long seconds = retryAfterSeconds(wait);
+        return HttpResponse.create()
+            .withStatus(StatusCodes.TOO_MANY_REQUESTS)
+            .addHeader(RetryAfter.create(seconds))
+            .withEntity("Too many requests, retry after " + seconds + "s");
+    }
+}
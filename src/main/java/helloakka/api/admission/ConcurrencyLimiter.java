@@ -0,0 +1,39 @@
+package helloakka.api.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free cap on the number of requests a single route may have in flight.
+ */
+public class ConcurrencyLimiter {
+
+    private final int maxConcurrent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ConcurrencyLimiter(int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Max concurrent must be positive, was " + maxConcurrent);
+        }
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
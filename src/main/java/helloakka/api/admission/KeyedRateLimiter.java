@@ -0,0 +1,112 @@
+package helloakka.api.admission;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key (cartId, machineId, ...).
+ *
+ * Each bucket is an immutable snapshot swapped with compare-and-set, so callers never block each other.
+ * Buckets that have refilled completely carry no information. Once more than {@code maxTrackedKeys} keys
+ * are tracked, one caller at a time sweeps those out, at most once per sweep interval. This is a soft limit:
+ * keys that are still being rate limited are never dropped.
+ */
+public class KeyedRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long DEFAULT_SWEEP_INTERVAL_NANOS = NANOS_PER_SECOND;
+
+    private record Bucket(double tokens, long lastRefillNanos) {}
+
+    // swapped into a bucket that is being evicted, callers seeing it start over with a fresh entry
+    private static final Bucket EVICTED = new Bucket(0, Long.MIN_VALUE);
+
+    private final double ratePerSecond;
+    private final double burst;
+    private final int maxTrackedKeys;
+    private final long sweepIntervalNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicReference<Bucket>> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong lastSweepNanos;
+
+    public KeyedRateLimiter(double ratePerSecond, double burst, int maxTrackedKeys) {
+        this(ratePerSecond, burst, maxTrackedKeys, DEFAULT_SWEEP_INTERVAL_NANOS, System::nanoTime);
+    }
+
+    KeyedRateLimiter(double ratePerSecond, double burst, int maxTrackedKeys, long sweepIntervalNanos, LongSupplier clock) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive, was " + ratePerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be at least 1, was " + burst);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.sweepIntervalNanos = sweepIntervalNanos;
+        this.clock = clock;
+        this.lastSweepNanos = new AtomicLong(clock.getAsLong() - sweepIntervalNanos);
+    }
+
+    /**
+     * Takes one token for the given key.
+     *
+     * @return {@link Duration#ZERO} when the request is admitted, otherwise how long until a token is available
+     */
+    public Duration tryAcquire(String key) {
+        long now = clock.getAsLong();
+        while (true) {
+            AtomicReference<Bucket> ref = buckets.computeIfAbsent(key, k -> new AtomicReference<>(new Bucket(burst, now)));
+            Bucket current = ref.get();
+            if (current == EVICTED) {
+                // the sweeper won the race for this entry, make sure it is gone and create a new one
+                buckets.remove(key, ref);
+                continue;
+            }
+            double tokens = refill(current, now);
+            if (tokens < 1.0) {
+                long waitNanos = (long) Math.ceil((1.0 - tokens) / ratePerSecond * NANOS_PER_SECOND);
+                return Duration.ofNanos(waitNanos);
+            }
+            if (ref.compareAndSet(current, new Bucket(tokens - 1.0, Math.max(now, current.lastRefillNanos())))) {
+                maybeEvictIdle(now);
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    private double refill(Bucket bucket, long now) {
+        long elapsed = Math.max(0, now - bucket.lastRefillNanos());
+        return Math.min(burst, bucket.tokens() + elapsed * ratePerSecond / NANOS_PER_SECOND);
+    }
+
+    private void maybeEvictIdle(long now) {
+        if (buckets.size() <= maxTrackedKeys
+            || now - lastSweepNanos.get() < sweepIntervalNanos
+            || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastSweepNanos.set(now);
+            buckets.forEach((key, ref) -> {
+                Bucket bucket = ref.get();
+                // a concurrent tryAcquire either lands its CAS first, so the bucket is no longer full and
+                // stays, or it finds the tombstone and starts over with a new entry
+                if (bucket != EVICTED && refill(bucket, now) >= burst && ref.compareAndSet(bucket, EVICTED)) {
+                    buckets.remove(key, ref);
+                }
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public int trackedKeys() {
+        return buckets.size();
+    }
+}
@@ -8,6 +8,7 @@ import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.Post;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.HttpResponses;
+import helloakka.api.admission.AdmissionControl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,7 +29,8 @@ import java.util.concurrent.CompletionStage;
  *     "temperature": 60
  *   }'
  * ```
- * Response: 200 OK with message on success, 400 Bad Request with error message on failure
+ * Response: 200 OK with message on success, 400 Bad Request with error message on failure,
+ * 429 Too Many Requests with a Retry-After header when the machine or the route is over its limit
  * 
  * 2. Get washing machine status:
  * ```bash
@@ -51,10 +53,12 @@ import java.util.concurrent.CompletionStage;
 public class WashingMachineEndpoint {
 
     private final ComponentClient componentClient;
+    private final AdmissionControl admissionControl;
     private static final Logger logger = LoggerFactory.getLogger(WashingMachineEndpoint.class);
 
-    public WashingMachineEndpoint(ComponentClient componentClient) {
+    public WashingMachineEndpoint(ComponentClient componentClient, AdmissionControl admissionControl) {
         this.componentClient = componentClient;
+        this.admissionControl = admissionControl;
     }
 
     @Get("/{machineId}")
@@ -70,18 +74,19 @@ public class WashingMachineEndpoint {
         logger.info("Starting washing machine id={} program={} temperature={}°C", 
             machineId, command.program(), command.temperature());
             
-        return componentClient.forWorkflow(machineId)
-            .method(WashingMachineWorkflow::startWashing)
-            .invokeAsync(command)
-            .thenApply(response -> {
-                if (response instanceof Response.Success) {
-                    return HttpResponses.ok();
-                } else {
-                    Response.Failure failure = (Response.Failure) response;
-                    return HttpResponse.create()
-                        .withStatus(StatusCodes.BAD_REQUEST)
-                        .withEntity(failure.message());
-                }
-            });
+        return admissionControl.admit("washing-machine-start", machineId, () ->
+            componentClient.forWorkflow(machineId)
+                .method(WashingMachineWorkflow::startWashing)
+                .invokeAsync(command)
+                .thenApply(response -> {
+                    if (response instanceof Response.Success) {
+                        return HttpResponses.ok();
+                    } else {
+                        Response.Failure failure = (Response.Failure) response;
+                        return HttpResponse.create()
+                            .withStatus(StatusCodes.BAD_REQUEST)
+                            .withEntity(failure.message());
+                    }
+                }));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,108 @@
+package helloakka.api.washing;
+
+import akka.NotUsed;
+import akka.grpc.GrpcServiceException;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.GrpcEndpoint;
+import akka.javasdk.client.ComponentClient;
+import akka.stream.javadsl.Source;
+import com.google.protobuf.Timestamp;
+import helloakka.api.admission.AdmissionControl;
+import helloakka.api.washing.grpc.GetStatusRequest;
+import helloakka.api.washing.grpc.MachineState;
+import helloakka.api.washing.grpc.MachineStatus;
+import helloakka.api.washing.grpc.StartWashingRequest;
+import helloakka.api.washing.grpc.StartWashingResponse;
+import helloakka.api.washing.grpc.WashingMachineGrpcEndpoint;
+import helloakka.api.washing.grpc.WatchStatusRequest;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * gRPC counterpart of {@link WashingMachineEndpoint} for internal callers, sharing its admission limits.
+ *
+ * Example usage:
+ * ```bash
+ * grpcurl -plaintext -d '{"machine_id": "machine1"}' localhost:9000 helloakka.api.washing.WashingMachineGrpcEndpoint/WatchStatus
+ * ```
+ */
+@Acl(allow = @Acl.Matcher(service = "*"))
+@GrpcEndpoint
+public class WashingMachineGrpcEndpointImpl implements WashingMachineGrpcEndpoint {
+
+    private final ComponentClient componentClient;
+    private final AdmissionControl admissionControl;
+    private static final Logger logger = LoggerFactory.getLogger(WashingMachineGrpcEndpointImpl.class);
+
+    public WashingMachineGrpcEndpointImpl(ComponentClient componentClient, AdmissionControl admissionControl) {
+        this.componentClient = componentClient;
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public CompletionStage<MachineState> getStatus(GetStatusRequest in) {
+        logger.info("Get washing machine status id={}", in.getMachineId());
+        return componentClient.forWorkflow(in.getMachineId())
+            .method(WashingMachineWorkflow::getStatus)
+            .invokeAsync()
+            .thenApply(state -> toApi(state.getCycleId(), state.getProgram(), state.getTemperature(),
+                state.getStatus(), state.getStartTime(), state.getLastUpdated()));
+    }
+
+    @Override
+    public CompletionStage<StartWashingResponse> startWashing(StartWashingRequest in) {
+        logger.info("Starting washing machine id={} program={} temperature={}°C",
+            in.getMachineId(), in.getProgram(), in.getTemperature());
+        var command = new StartWashing(in.getProgram(), in.getTemperature());
+
+        return admissionControl.admit("washing-machine-start", in.getMachineId(), () ->
+                componentClient.forWorkflow(in.getMachineId())
+                    .method(WashingMachineWorkflow::startWashing)
+                    .invokeAsync(command)
+                    .thenApply(response -> switch (response) {
+                        case Response.Success s -> StartWashingResponse.newBuilder().setSuccess(s.message()).build();
+                        case Response.Failure f -> StartWashingResponse.newBuilder().setFailure(f.message()).build();
+                    }),
+            wait -> CompletableFuture.failedFuture(new GrpcServiceException(
+                Status.RESOURCE_EXHAUSTED.withDescription(
+                    "Too many requests, retry after " + AdmissionControl.retryAfterSeconds(wait) + "s"))));
+    }
+
+    @Override
+    public Source<MachineState, NotUsed> watchStatus(WatchStatusRequest in) {
+        logger.info("Watch washing machine status id={}", in.getMachineId());
+        // pushed from the view as the workflow moves on, so watchers put no load on the workflow
+        return componentClient.forView()
+            .stream(WashingMachineStatusView::watchStatus)
+            .source(in.getMachineId())
+            // the last element is the terminal state, after which nothing changes anymore
+            .takeWhile(row -> row.status() != WashingMachineStatus.COMPLETED
+                && row.status() != WashingMachineStatus.ERROR, true)
+            .map(row -> toApi(row.cycleId(), row.program(), row.temperature(), row.status(),
+                row.startTime(), row.lastUpdated()));
+    }
+
+    private static MachineState toApi(String cycleId, String program, int temperature, WashingMachineStatus status,
+                                      Instant startTime, Instant lastUpdated) {
+        return MachineState.newBuilder()
+            .setCycleId(cycleId)
+            .setProgram(program)
+            .setTemperature(temperature)
+            .setStatus(MachineStatus.valueOf(status.name()))
+            .setStartTime(toTimestamp(startTime))
+            .setLastUpdated(toTimestamp(lastUpdated))
+            .build();
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.newBuilder()
+            .setSeconds(instant.getEpochSecond())
+            .setNanos(instant.getNano())
+            .build();
+    }
+}
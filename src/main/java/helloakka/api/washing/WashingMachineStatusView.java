@@ -0,0 +1,43 @@
+package helloakka.api.washing;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.annotations.Table;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+
+import java.time.Instant;
+
+/**
+ * Projection of the washing machine workflow state, used to push status changes to watchers without
+ * reading the workflow.
+ */
+@ComponentId("washing-machine-status")
+public class WashingMachineStatusView extends View {
+
+    public record MachineStatusRow(String machineId, String cycleId, String program, int temperature,
+                                   WashingMachineStatus status, Instant startTime, Instant lastUpdated) {}
+
+    @Table("washing_machine_status")
+    @Consume.FromWorkflow(WashingMachineWorkflow.class)
+    public static class MachineStatusUpdater extends TableUpdater<MachineStatusRow> {
+
+        public Effect<MachineStatusRow> onUpdate(WashingMachineState state) {
+            return effects().updateRow(new MachineStatusRow(
+                updateContext().eventSubject().orElse(""),
+                state.getCycleId(),
+                state.getProgram(),
+                state.getTemperature(),
+                state.getStatus(),
+                state.getStartTime(),
+                state.getLastUpdated()));
+        }
+    }
+
+    // emits the current state and then the state after every change to it
+    @Query(value = "SELECT * FROM washing_machine_status WHERE machineId = :machineId", streamUpdates = true)
+    public QueryStreamEffect<MachineStatusRow> watchStatus(String machineId) {
+        return queryStreamResult();
+    }
+}
@@ -0,0 +1,125 @@
+package helloakka;
+
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import helloakka.api.ShoppingCart;
+import helloakka.api.ShoppingCartEntity;
+import helloakka.api.grpc.AddItemRequest;
+import helloakka.api.grpc.GetCartRequest;
+import helloakka.api.grpc.LineItem;
+import helloakka.api.grpc.ShoppingCartGrpcEndpointClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Compares throughput and latency of reading a cart and adding items to carts over HTTP/JSON and over gRPC.
+ * Admission control is switched off so the numbers reflect the protocols rather than the limits.
+ *
+ * Not part of the regular build, run it with:
+ * ```bash
+ * mvn test -Dtest=EndpointBenchmark -Dbenchmark=true
+ * ```
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class EndpointBenchmark extends TestKitSupport {
+
+  private static final String CART_ID = "benchmark-cart";
+  // writes are spread over many carts, so a single hot entity does not dominate the measurement
+  private static final int WRITE_CARTS = 100;
+  private static final int WARMUP_REQUESTS = 2_000;
+  private static final int REQUESTS = 20_000;
+  private static final int CONCURRENCY = 32;
+
+  @Override
+  protected TestKit.Settings testKitSettings() {
+    return TestKit.Settings.DEFAULT.withAdditionalConfig("helloakka.admission.enabled = false");
+  }
+
+  @Test
+  public void compareGetCart() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      await(componentClient.forEventSourcedEntity(CART_ID)
+          .method(ShoppingCartEntity::addItem)
+          .invokeAsync(new ShoppingCart.LineItem("product-" + i, "Product " + i, i + 1)));
+    }
+
+    IntFunction<CompletionStage<?>> http = i -> httpClient.GET("/carts/" + CART_ID)
+        .responseBodyAs(ShoppingCart.class)
+        .invokeAsync();
+    var grpcClient = getGrpcEndpointClient(ShoppingCartGrpcEndpointClient.class);
+    var request = GetCartRequest.newBuilder().setCartId(CART_ID).build();
+    IntFunction<CompletionStage<?>> grpc = i -> grpcClient.getCart(request);
+
+    compare("getCart", http, grpc);
+  }
+
+  @Test
+  public void compareAddItem() throws Exception {
+    IntFunction<CompletionStage<?>> http = i -> httpClient.PUT("/carts/http-" + (i % WRITE_CARTS) + "/item")
+        .withRequestBody(new ShoppingCart.LineItem("product-" + i, "Product " + i, 1))
+        .invokeAsync();
+    var grpcClient = getGrpcEndpointClient(ShoppingCartGrpcEndpointClient.class);
+    IntFunction<CompletionStage<?>> grpc = i -> grpcClient.addItem(AddItemRequest.newBuilder()
+        .setCartId("grpc-" + (i % WRITE_CARTS))
+        .setItem(LineItem.newBuilder().setProductId("product-" + i).setName("Product " + i).setQuantity(1))
+        .build());
+
+    compare("addItem", http, grpc);
+  }
+
+  private void compare(String operation, IntFunction<CompletionStage<?>> http,
+                       IntFunction<CompletionStage<?>> grpc) throws Exception {
+    run(http, WARMUP_REQUESTS);
+    run(grpc, WARMUP_REQUESTS);
+    report(operation + " http", run(http, REQUESTS));
+    report(operation + " grpc", run(grpc, REQUESTS));
+  }
+
+  private record Result(long totalNanos, long[] latencies) {}
+
+  private Result run(IntFunction<CompletionStage<?>> call, int requests) throws Exception {
+    long[] latencies = new long[requests];
+    var workers = new ArrayList<CompletableFuture<Void>>();
+    var next = new AtomicInteger();
+    long start = System.nanoTime();
+    for (int w = 0; w < CONCURRENCY; w++) {
+      workers.add(loop(call, next, latencies).toCompletableFuture());
+    }
+    CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).get();
+    return new Result(System.nanoTime() - start, latencies);
+  }
+
+  // each worker issues its next request once the previous one completes, keeping CONCURRENCY in flight
+  private CompletionStage<Void> loop(IntFunction<CompletionStage<?>> call,
+                                     AtomicInteger next, long[] latencies) {
+    int i = next.getAndIncrement();
+    if (i >= latencies.length) {
+      return CompletableFuture.completedFuture(null);
+    }
+    long sent = System.nanoTime();
+    return call.apply(i).thenCompose(__ -> {
+      latencies[i] = System.nanoTime() - sent;
+      return loop(call, next, latencies);
+    });
+  }
+
+  private void report(String name, Result result) {
+    long[] sorted = result.latencies().clone();
+    Arrays.sort(sorted);
+    double seconds = result.totalNanos() / 1e9;
+    System.out.printf("%s: %d requests in %.2fs, %.0f req/s, p50=%.2fms p99=%.2fms max=%.2fms%n",
+        name, sorted.length, seconds, sorted.length / seconds,
+        percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+  }
+
+  private static double percentile(long[] sorted, double p) {
+    return sorted[(int) Math.min(sorted.length - 1, Math.round(p * sorted.length))] / 1e6;
+  }
+}
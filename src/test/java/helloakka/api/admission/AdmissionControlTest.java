@@ -0,0 +1,108 @@
+package helloakka.api.admission;
+
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+
+  private static AdmissionControl admissionControl(int maxConcurrent, double rate, double burst) {
+    return AdmissionControl.fromConfig(ConfigFactory.parseString(
+        "helloakka.admission {\n" +
+        "  enabled = true\n" +
+        "  max-tracked-keys = 100\n" +
+        "  routes.test-route {\n" +
+        "    max-concurrent = " + maxConcurrent + "\n" +
+        "    per-key-rate = " + rate + "\n" +
+        "    per-key-burst = " + burst + "\n" +
+        "  }\n" +
+        "}"));
+  }
+
+  private static CompletionStage<HttpResponse> ok() {
+    return CompletableFuture.completedFuture(HttpResponse.create());
+  }
+
+  private static HttpResponse result(CompletionStage<HttpResponse> stage) throws Exception {
+    return stage.toCompletableFuture().get();
+  }
+
+  @Test
+  public void rejectsWithRetryAfterWhenKeyIsOverItsRate() throws Exception {
+    var admission = admissionControl(10, 0.5, 1);
+
+    assertEquals(StatusCodes.OK, result(admission.admit("test-route", "cart1", AdmissionControlTest::ok)).status());
+
+    HttpResponse rejected = result(admission.admit("test-route", "cart1", AdmissionControlTest::ok));
+    assertEquals(StatusCodes.TOO_MANY_REQUESTS, rejected.status());
+    assertEquals("2", rejected.getHeader("Retry-After").orElseThrow().value());
+  }
+
+  @Test
+  public void rejectsWhenRouteIsSaturated() throws Exception {
+    var admission = admissionControl(1, 100, 100);
+    var pending = new CompletableFuture<HttpResponse>();
+
+    admission.admit("test-route", "cart1", () -> pending);
+    HttpResponse rejected = result(admission.admit("test-route", "cart2", AdmissionControlTest::ok));
+
+    assertEquals(StatusCodes.TOO_MANY_REQUESTS, rejected.status());
+    assertTrue(rejected.getHeader("Retry-After").isPresent());
+  }
+
+  @Test
+  public void saturatedRouteDoesNotSpendKeyTokens() throws Exception {
+    var admission = admissionControl(1, 0.001, 1);
+    var pending = new CompletableFuture<HttpResponse>();
+
+    admission.admit("test-route", "cart1", () -> pending);
+    assertEquals(StatusCodes.TOO_MANY_REQUESTS, result(admission.admit("test-route", "cart2", AdmissionControlTest::ok)).status());
+    pending.complete(HttpResponse.create());
+
+    assertEquals(StatusCodes.OK, result(admission.admit("test-route", "cart2", AdmissionControlTest::ok)).status());
+  }
+
+  @Test
+  public void releasesSlotWhenCallFails() throws Exception {
+    var admission = admissionControl(1, 100, 100);
+
+    var failed = admission.admit("test-route", "cart1",
+        () -> CompletableFuture.failedFuture(new RuntimeException("boom")));
+    assertTrue(failed.toCompletableFuture().isCompletedExceptionally());
+
+    assertEquals(StatusCodes.OK, result(admission.admit("test-route", "cart1", AdmissionControlTest::ok)).status());
+  }
+
+  @Test
+  public void releasesSlotWhenCallThrows() throws Exception {
+    var admission = admissionControl(1, 100, 100);
+
+    assertThrows(RuntimeException.class, () -> admission.admit("test-route", "cart1", () -> {
+      throw new RuntimeException("boom");
+    }));
+
+    assertEquals(StatusCodes.OK, result(admission.admit("test-route", "cart1", AdmissionControlTest::ok)).status());
+  }
+
+  @Test
+  public void unknownRoutesAreNotLimited() throws Exception {
+    var admission = admissionControl(1, 0.001, 1);
+
+    result(admission.admit("other-route", "cart1", AdmissionControlTest::ok));
+    assertEquals(StatusCodes.OK, result(admission.admit("other-route", "cart1", AdmissionControlTest::ok)).status());
+  }
+
+  @Test
+  public void failsFastOnInvalidLimits() {
+    assertThrows(IllegalArgumentException.class, () -> admissionControl(10, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> admissionControl(0, 1, 1));
+  }
+}
@@ -0,0 +1,37 @@
+package helloakka.api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrencyLimiterTest {
+
+  @Test
+  public void admitsUpToTheLimit() {
+    var limiter = new ConcurrencyLimiter(2);
+
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    assertEquals(2, limiter.inFlight());
+  }
+
+  @Test
+  public void releaseFreesASlot() {
+    var limiter = new ConcurrencyLimiter(1);
+
+    assertTrue(limiter.tryAcquire());
+    limiter.release();
+
+    assertTrue(limiter.tryAcquire());
+    assertEquals(1, limiter.inFlight());
+  }
+
+  @Test
+  public void rejectsNonPositiveLimit() {
+    assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(0));
+  }
+}
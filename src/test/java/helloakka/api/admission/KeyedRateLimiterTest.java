@@ -0,0 +1,100 @@
+package helloakka.api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KeyedRateLimiterTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  private final AtomicLong clock = new AtomicLong(0);
+
+  private KeyedRateLimiter limiter(double rate, double burst, int maxTrackedKeys) {
+    return new KeyedRateLimiter(rate, burst, maxTrackedKeys, SECOND, clock::get);
+  }
+
+  @Test
+  public void admitsBurstThenReportsWaitForNextToken() {
+    var limiter = limiter(2, 3, 100);
+
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+    // 2 tokens per second, so the next one is half a second away
+    assertEquals(Duration.ofMillis(500), limiter.tryAcquire("cart1"));
+  }
+
+  @Test
+  public void refillsOverTime() {
+    var limiter = limiter(2, 1, 100);
+
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+    clock.addAndGet(SECOND / 4);
+    assertEquals(Duration.ofMillis(250), limiter.tryAcquire("cart1"));
+    clock.addAndGet(SECOND / 4);
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+  }
+
+  @Test
+  public void refillIsCappedAtBurst() {
+    var limiter = limiter(10, 2, 100);
+
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+    clock.addAndGet(60 * SECOND);
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+    assertEquals(Duration.ofMillis(100), limiter.tryAcquire("cart1"));
+  }
+
+  @Test
+  public void keysAreLimitedIndependently() {
+    var limiter = limiter(1, 1, 100);
+
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart1"));
+    assertEquals(Duration.ZERO, limiter.tryAcquire("cart2"));
+    assertEquals(Duration.ofSeconds(1), limiter.tryAcquire("cart1"));
+  }
+
+  @Test
+  public void evictsOnlyFullyRefilledBucketsOverTheLimit() {
+    var limiter = limiter(1, 1, 2);
+
+    limiter.tryAcquire("idle1");
+    limiter.tryAcquire("idle2");
+    clock.addAndGet(2 * SECOND);
+    limiter.tryAcquire("busy1");
+    limiter.tryAcquire("busy2");
+
+    // idle1 and idle2 have refilled, the busy keys are still limited
+    assertEquals(2, limiter.trackedKeys());
+    assertEquals(Duration.ofSeconds(1), limiter.tryAcquire("busy1"));
+  }
+
+  @Test
+  public void sweepsAtMostOncePerInterval() {
+    var limiter = limiter(1, 1, 1);
+
+    limiter.tryAcquire("cart1");
+    clock.addAndGet(2 * SECOND);
+    limiter.tryAcquire("cart2");
+    assertEquals(1, limiter.trackedKeys());
+
+    clock.addAndGet(2 * SECOND);
+    limiter.tryAcquire("cart3");
+    assertEquals(1, limiter.trackedKeys());
+
+    // next sweep only once the interval has passed again
+    limiter.tryAcquire("cart4");
+    assertEquals(2, limiter.trackedKeys());
+  }
+
+  @Test
+  public void rejectsNonPositiveRate() {
+    assertThrows(IllegalArgumentException.class, () -> limiter(0, 1, 100));
+  }
+}